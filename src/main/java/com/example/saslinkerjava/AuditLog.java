@@ -0,0 +1,298 @@
+// File: AuditLog.java
+// Append-only handshake audit log for SASLinkerServer (on by default: sas_audit.log, -Daudit=off to disable).
+// Request threads only enqueue; a single writer thread encodes, buffers and flushes to disk.
+// On open, a torn tail left by a crash is moved aside to <file>.torn-<millis> and the log is truncated to the
+// last valid record, so later appends stay readable.
+//
+// File  : "SASA" magic, 1 byte version, then records.
+// Record: int bodyLen | body | int CRC32(body)
+// Body  : long epochMillis | byte outcome | sid | sdPub | pdPub | cSD | cPD | rSD | rPD | hmacKey | sas | proof
+//         each variable field is an unsigned-short length + bytes (length 0 = absent);
+//         BigIntegers as two's-complement bytes, strings as UTF-8.
+//         DROPPED marker: all fields absent except proof = 8-byte count of entries lost before it
+//         (queue full, or an entry too large to encode; the writer skips it and carries on).
+// Only a stream I/O error stops the writer; whatever it still held is counted as dropped.
+// NOTE: records carry the per-session HMAC key so proofs can be re-verified offline. The file is created
+//       owner-only (rw-------) on POSIX file systems.
+
+package com.example.saslinkerjava;
+
+import java.io.*;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+public class AuditLog implements Closeable {
+
+    static final byte[] MAGIC = {'S', 'A', 'S', 'A'};
+    static final byte VERSION = 1;
+    private static final int MAX_BODY = 1 << 20;
+
+    enum Outcome {
+        PROOF_OK(1), BAD_PROOF(2), COMMIT_MISMATCH(3), ACCEPTED(4), REJECTED(5), DROPPED(6);
+        final byte code;
+        Outcome(int code) { this.code = (byte) code; }
+        static Outcome of(byte code) {
+            for (Outcome o : values()) if (o.code == code) return o;
+            throw new IllegalArgumentException("unknown outcome " + code);
+        }
+    }
+
+    record Entry(long epochMillis, Outcome outcome, String sid, BigInteger sdPub, BigInteger pdPub,
+                 String cSDHex, String cPDHex, byte[] rSD, byte[] rPD, byte[] hmacKey, String sas, byte[] proof) {
+        static Entry dropped(long count) {
+            return new Entry(System.currentTimeMillis(), Outcome.DROPPED, null, null, null, null, null,
+                    null, null, null, null, ByteBuffer.allocate(8).putLong(count).array());
+        }
+        long droppedCount() { return ByteBuffer.wrap(proof).getLong(); }
+    }
+
+    private static final Entry STOP = new Entry(0, null, null, null, null, null, null, null, null, null, null, null);
+
+    private final BlockingQueue<Entry> queue;
+    private final DataOutputStream out;
+    private final Thread writer;
+    private final AtomicLong dropped = new AtomicLong();     // total, for stats
+    private final AtomicLong unlogged = new AtomicLong();    // not yet covered by a DROPPED marker
+    private volatile boolean closed = false;
+    private volatile boolean failed = false;                 // writer hit a stream I/O error; nothing is being written
+
+    AuditLog(File file, int queueCapacity) throws IOException {
+        Path path = file.toPath();
+        boolean fresh = createOwnerOnly(path) || Files.size(path) == 0;
+        if (!fresh && Files.size(path) < MAGIC.length + 1 && tornHeader(path)) {
+            Files.write(path, new byte[0], StandardOpenOption.TRUNCATE_EXISTING); // crashed while writing the header
+            fresh = true;
+        }
+        if (!fresh) recoverTail(file);
+        this.out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND), 64 * 1024));
+        if (fresh) { out.write(MAGIC); out.writeByte(VERSION); out.flush(); }
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = new Thread(this::drain, "sas-audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Returns false if the entry will not reach the log. Link decisions (ACCEPTED/REJECTED) wait briefly for queue
+    // space; other outcomes never block the request path. Losses are counted and written as a DROPPED marker.
+    boolean append(Entry e) {
+        boolean queued = false;
+        if (!closed && !failed) {
+            try {
+                queued = e.outcome() == Outcome.ACCEPTED || e.outcome() == Outcome.REJECTED
+                        ? queue.offer(e, 200, TimeUnit.MILLISECONDS) : queue.offer(e);
+            } catch (InterruptedException ie) { Thread.currentThread().interrupt(); }
+            if (queued && failed && queue.remove(e)) queued = false; // raced with a dying writer
+        }
+        if (!queued) {
+            unlogged.incrementAndGet();
+            if (dropped.incrementAndGet() % 1000 == 1) System.err.println("[audit] entry not logged, dropped=" + dropped.get());
+        }
+        return queued;
+    }
+    long dropped() { return dropped.get(); }
+    boolean healthy() { return !closed && !failed; }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        // a dead writer never takes STOP and may have left the queue full: don't hang the shutdown hook on it
+        try { if (!failed && queue.offer(STOP, 5, TimeUnit.SECONDS)) writer.join(); }
+        catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    }
+
+    private void drain() {
+        List<Entry> batch = new ArrayList<>(1024);
+        int next = 0;       // first entry of batch not yet handed to the stream
+        long unflushed = 0; // entries written since the last successful flush
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, 1023);
+                long lost = unlogged.getAndSet(0);
+                if (lost > 0) writeRecord(out, Entry.dropped(lost));
+                for (next = 0; next < batch.size(); next++) {
+                    Entry e = batch.get(next);
+                    if (e == STOP) {
+                        lost = unlogged.getAndSet(0);
+                        if (lost > 0) writeRecord(out, Entry.dropped(lost));
+                        out.close();
+                        return;
+                    }
+                    byte[] body;
+                    try { body = encode(e); }
+                    catch (IllegalArgumentException tooLarge) { // a bad entry must not take the log down with it
+                        dropped.incrementAndGet();
+                        System.err.println("[audit] skipped " + e.outcome() + " entry for sid=" + e.sid() + ": " + tooLarge.getMessage());
+                        writeBody(out, encode(Entry.dropped(1 + unlogged.getAndSet(0))));
+                        continue;
+                    }
+                    writeBody(out, body);
+                    unflushed++;
+                }
+                batch.clear();
+                next = 0;
+                if (queue.isEmpty()) { out.flush(); unflushed = 0; } // flush when idle, not per record
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            failed = true;
+            // nothing written since the last flush is known to be on disk, and the queue will never drain
+            List<Entry> rest = new ArrayList<>(batch.subList(next, batch.size()));
+            queue.drainTo(rest);
+            rest.remove(STOP);
+            long lost = unflushed + rest.size();
+            dropped.addAndGet(lost);
+            System.err.println("[audit] write failed, audit log disabled (links will be refused), "
+                    + lost + " entries possibly lost: " + e);
+        }
+    }
+
+    // ---------- open ----------
+    // true if the file was created here
+    private static boolean createOwnerOnly(Path path) throws IOException {
+        boolean posix = path.toAbsolutePath().getFileSystem().supportedFileAttributeViews().contains("posix");
+        Set<PosixFilePermission> ownerOnly = PosixFilePermissions.fromString("rw-------");
+        if (Files.exists(path)) {
+            if (posix) Files.setPosixFilePermissions(path, ownerOnly);
+            return false;
+        }
+        if (posix) Files.createFile(path, PosixFilePermissions.asFileAttribute(ownerOnly));
+        else Files.createFile(path);
+        return true;
+    }
+
+    private static boolean tornHeader(Path path) throws IOException {
+        byte[] head = Files.readAllBytes(path);
+        return java.util.Arrays.equals(head, 0, Math.min(head.length, MAGIC.length), MAGIC, 0, Math.min(head.length, MAGIC.length));
+    }
+
+    // Truncate to the last valid record; the discarded tail is kept next to the log for inspection.
+    private static void recoverTail(File file) throws IOException {
+        long valid;
+        try (Reader r = new Reader(file)) {
+            try { while (r.next() != null) { /* scan */ } }
+            catch (IOException torn) { /* stop at the first bad record */ }
+            valid = r.bytes;
+        }
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = ch.size();
+            if (size <= valid) return;
+            Path aside = file.toPath().resolveSibling(file.getName() + ".torn-" + System.currentTimeMillis());
+            createOwnerOnly(aside);
+            try (FileChannel out = FileChannel.open(aside, StandardOpenOption.WRITE)) {
+                ch.transferTo(valid, size - valid, out);
+            }
+            ch.truncate(valid);
+            System.err.println("[audit] recovered " + file + ": truncated " + (size - valid) + " bytes after record "
+                    + "boundary " + valid + " (saved to " + aside.getFileName() + ")");
+        }
+    }
+
+    // ---------- codec ----------
+    static void writeRecord(DataOutputStream out, Entry e) throws IOException {
+        writeBody(out, encode(e));
+    }
+
+    // IllegalArgumentException if a field does not fit its unsigned-short length
+    static byte[] encode(Entry e) {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(1024);
+        DataOutputStream b = new DataOutputStream(buf);
+        try {
+            b.writeLong(e.epochMillis());
+            b.writeByte(e.outcome().code);
+            field(b, utf8(e.sid()));
+            field(b, e.sdPub() == null ? null : e.sdPub().toByteArray());
+            field(b, e.pdPub() == null ? null : e.pdPub().toByteArray());
+            field(b, utf8(e.cSDHex()));
+            field(b, utf8(e.cPDHex()));
+            field(b, e.rSD());
+            field(b, e.rPD());
+            field(b, e.hmacKey());
+            field(b, utf8(e.sas()));
+            field(b, e.proof());
+        } catch (IOException impossible) { throw new UncheckedIOException(impossible); } // in-memory stream
+        return buf.toByteArray();
+    }
+
+    private static void writeBody(DataOutputStream out, byte[] body) throws IOException {
+        CRC32 crc = new CRC32(); crc.update(body);
+        out.writeInt(body.length);
+        out.write(body);
+        out.writeInt((int) crc.getValue());
+    }
+
+    /** Streaming reader; {@link #next()} returns null at a clean end of file. */
+    static class Reader implements Closeable {
+        private final DataInputStream in;
+        long records = 0, bytes = 5;
+
+        Reader(File file) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 256 * 1024));
+            byte[] magic = new byte[4];
+            in.readFully(magic);
+            if (!java.util.Arrays.equals(magic, MAGIC)) throw new IOException("not an audit log: " + file);
+            int v = in.readUnsignedByte();
+            if (v != VERSION) throw new IOException("unsupported audit log version " + v);
+        }
+
+        // EOFException = torn tail (e.g. crash mid-write); IOException("crc") = corrupt record
+        Entry next() throws IOException {
+            int first = in.read();
+            if (first < 0) return null;
+            int len = (first << 24) | (in.readUnsignedByte() << 16) | (in.readUnsignedByte() << 8) | in.readUnsignedByte();
+            if (len < 0 || len > MAX_BODY) throw new IOException("bad record length " + len + " at record " + records);
+            byte[] body = new byte[len];
+            in.readFully(body);
+            int crcStored = in.readInt();
+            CRC32 crc = new CRC32(); crc.update(body);
+            if ((int) crc.getValue() != crcStored) throw new IOException("crc mismatch at record " + records);
+            DataInputStream b = new DataInputStream(new ByteArrayInputStream(body));
+            long t = b.readLong();
+            Outcome o;
+            try { o = Outcome.of(b.readByte()); }
+            catch (IllegalArgumentException bad) { throw new IOException(bad.getMessage() + " at record " + records); }
+            Entry e = new Entry(t, o, str(field(b)), big(field(b)), big(field(b)), str(field(b)), str(field(b)),
+                    field(b), field(b), field(b), str(field(b)), field(b));
+            records++;
+            bytes += 8 + len;
+            return e;
+        }
+
+        @Override public void close() throws IOException { in.close(); }
+    }
+
+    private static void field(DataOutputStream b, byte[] v) throws IOException {
+        if (v == null) { b.writeShort(0); return; }
+        if (v.length > 0xFFFF) throw new IllegalArgumentException("field too long: " + v.length);
+        b.writeShort(v.length);
+        b.write(v);
+    }
+    private static byte[] field(DataInputStream b) throws IOException {
+        int n = b.readUnsignedShort();
+        if (n == 0) return null;
+        byte[] v = new byte[n];
+        b.readFully(v);
+        return v;
+    }
+    private static byte[] utf8(String s) { return s == null ? null : s.getBytes(StandardCharsets.UTF_8); }
+    private static String str(byte[] b) { return b == null ? null : new String(b, StandardCharsets.UTF_8); }
+    private static BigInteger big(byte[] b) { return b == null ? null : new BigInteger(b); }
+}
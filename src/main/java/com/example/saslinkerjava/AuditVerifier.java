@@ -0,0 +1,175 @@
+// File: AuditVerifier.java
+// Offline re-verification of a SASLinkerServer audit log (see AuditLog).
+// Streams the log in fixed-size batches and re-checks commitments, SAS and PD HMAC proof of every
+// record on a fork/join pool; at most a few batches are in memory at once, whatever the log size.
+//
+// Run: java -cp ... com.example.saslinkerjava.AuditVerifier sas_audit.log [-Dthreads=N] [-Dbatch=4096]
+// Exit: 0 all records consistent with their outcome, 1 failures, dropped entries or corrupt log, 2 usage / IO error.
+// The HMAC key is trusted as logged: this proves each record is self-consistent, not that the key came from the DH.
+
+package com.example.saslinkerjava;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import static com.example.saslinkerjava.SASLinkerServer.*;
+
+public class AuditVerifier {
+
+    private static final int THREADS = Integer.getInteger("threads", Runtime.getRuntime().availableProcessors());
+    private static final int BATCH = Integer.getInteger("batch", 4096);
+    private static final int SPLIT = 256;            // records per leaf task
+    private static final int MAX_REPORTED = 100;     // failures listed individually
+
+    record Failure(long index, String sid, AuditLog.Outcome outcome, String reason) {}
+
+    static final class Result {
+        long records;
+        final long[] byOutcome = new long[AuditLog.Outcome.values().length];
+        long failures;
+        long lost;                               // entries the server could not log (DROPPED markers)
+        final List<Failure> sample = new ArrayList<>();
+
+        Result merge(Result o) {
+            records += o.records;
+            for (int i = 0; i < byOutcome.length; i++) byOutcome[i] += o.byOutcome[i];
+            failures += o.failures;
+            lost += o.lost;
+            for (Failure f : o.sample) if (sample.size() < MAX_REPORTED) sample.add(f);
+            return this;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println("usage: AuditVerifier <audit.log>  [-Dthreads=N] [-Dbatch=N]");
+            System.exit(2);
+        }
+        File file = new File(args[0]);
+        ForkJoinPool pool = new ForkJoinPool(THREADS);
+        Result total = new Result();
+        String logError = null;
+        long t0 = System.nanoTime();
+        long bytes = 0;
+
+        try (AuditLog.Reader r = new AuditLog.Reader(file)) {
+            ArrayDeque<ForkJoinTask<Result>> inFlight = new ArrayDeque<>();
+            long index = 0;
+            while (true) {
+                List<AuditLog.Entry> batch = new ArrayList<>(BATCH);
+                try {
+                    AuditLog.Entry e;
+                    while (batch.size() < BATCH && (e = r.next()) != null) batch.add(e);
+                } catch (EOFException eof) {
+                    logError = "truncated record at end of log after record " + r.records + " (crash during write?)";
+                } catch (IOException bad) {
+                    logError = bad.getMessage();
+                }
+                if (!batch.isEmpty()) {
+                    inFlight.add(pool.submit(new Verify(batch, 0, batch.size(), index)));
+                    index += batch.size();
+                }
+                // bound memory: keep the pool busy but never hold more than 2 batches per worker
+                while (inFlight.size() >= THREADS * 2 || (!inFlight.isEmpty() && (batch.size() < BATCH || logError != null)))
+                    total.merge(inFlight.poll().join());
+                if (batch.size() < BATCH || logError != null) break;
+            }
+            bytes = r.bytes;
+        } catch (IOException e) {
+            System.err.println("cannot read " + file + ": " + e.getMessage());
+            System.exit(2);
+        } finally {
+            pool.shutdown();
+        }
+
+        double secs = (System.nanoTime() - t0) / 1e9;
+        System.out.printf(Locale.ROOT, "Verified %d records (%.1f MB) in %.2fs on %d threads: %.0f records/s, %.1f MB/s%n",
+                total.records, bytes / 1e6, secs, THREADS, total.records / secs, bytes / 1e6 / secs);
+        for (AuditLog.Outcome o : AuditLog.Outcome.values())
+            System.out.printf("  %-16s %d%n", o, total.byOutcome[o.ordinal()]);
+        System.out.println("Failures: " + total.failures);
+        if (total.lost > 0) System.out.println("Gap: " + total.lost + " entries were not logged by the server (see DROPPED records)");
+        for (Failure f : total.sample)
+            System.out.println("  #" + f.index() + " sid=" + f.sid() + " " + f.outcome() + ": " + f.reason());
+        if (total.failures > total.sample.size()) System.out.println("  ... " + (total.failures - total.sample.size()) + " more");
+        if (logError != null) System.out.println("Log error: " + logError);
+        System.exit(total.failures == 0 && logError == null ? 0 : 1);
+    }
+
+    // ---------- fork/join ----------
+    static final class Verify extends RecursiveTask<Result> {
+        private static final long serialVersionUID = 1L;
+        private final List<AuditLog.Entry> batch;
+        private final int from, to;
+        private final long base;
+
+        Verify(List<AuditLog.Entry> batch, int from, int to, long base) {
+            this.batch = batch; this.from = from; this.to = to; this.base = base;
+        }
+
+        @Override
+        protected Result compute() {
+            if (to - from > SPLIT) {
+                int mid = (from + to) >>> 1;
+                Verify left = new Verify(batch, from, mid, base);
+                left.fork();
+                Result right = new Verify(batch, mid, to, base).compute();
+                return left.join().merge(right);
+            }
+            Result res = new Result();
+            for (int i = from; i < to; i++) {
+                AuditLog.Entry e = batch.get(i);
+                res.records++;
+                res.byOutcome[e.outcome().ordinal()]++;
+                if (e.outcome() == AuditLog.Outcome.DROPPED && e.proof() != null && e.proof().length == 8) res.lost += e.droppedCount();
+                String reason;
+                try { reason = check(e); } catch (RuntimeException ex) { reason = "unreadable: " + ex; }
+                if (reason != null) {
+                    res.failures++;
+                    if (res.sample.size() < MAX_REPORTED) res.sample.add(new Failure(base + i, e.sid(), e.outcome(), reason));
+                }
+            }
+            return res;
+        }
+    }
+
+    // ---------- per-record check ----------
+    // Returns null when the recorded material is consistent with the recorded outcome, else the reason.
+    // The HMAC key is taken from the record: this proves the proof/SAS/commitments, not the DH derivation.
+    static String check(AuditLog.Entry e) {
+        if (e.outcome() == AuditLog.Outcome.DROPPED)
+            return e.proof() == null || e.proof().length != 8 ? "malformed DROPPED marker"
+                    : e.droppedCount() + " audit entries were not logged before this point";
+        if (e.sid() == null || e.sdPub() == null || e.cSDHex() == null || e.rSD() == null) return "missing SD material";
+        boolean sdCommitOK = commitOK(e.cSDHex(), e.rSD(), e.sdPub().toString());
+        boolean pdCommitOK = e.pdPub() != null && e.cPDHex() != null && e.rPD() != null
+                && commitOK(e.cPDHex(), e.rPD(), e.pdPub().toString());
+
+        if (e.outcome() == AuditLog.Outcome.COMMIT_MISMATCH)
+            return sdCommitOK && pdCommitOK ? "logged commit-mismatch but both commitments verify" : null;
+
+        if (!sdCommitOK) return "SD commitment does not match rSD/sdPub";
+        if (!pdCommitOK) return "PD commitment does not match rPD/pdPub";
+        if (e.hmacKey() == null || e.hmacKey().length != 32) return "missing or bad HMAC key";
+        if (e.proof() == null) return "missing PD proof";
+
+        String sas = makeSAS(e.hmacKey(), e.rPD(), e.rSD());
+        if (!sas.equals(e.sas())) return "SAS mismatch: logged " + e.sas() + ", recomputed " + sas;
+
+        String t = transcript(e.sid(), e.sdPub(), e.pdPub(), e.cSDHex(), e.cPDHex(), e.rSD(), e.rPD(), sas);
+        boolean proofOK = MessageDigest.isEqual(hmacSHA256(e.hmacKey(), t.getBytes(StandardCharsets.UTF_8)), e.proof());
+
+        if (e.outcome() == AuditLog.Outcome.BAD_PROOF) return proofOK ? "logged bad-proof but proof verifies" : null;
+        // PROOF_OK, ACCEPTED, REJECTED: /confirm is only reachable after a valid proof
+        return proofOK ? null : "PD HMAC proof does not verify";
+    }
+
+    private static boolean commitOK(String cHex, byte[] r, String pubDecimal) {
+        return sha256hex(join(r, pubDecimal.getBytes(StandardCharsets.UTF_8))).equalsIgnoreCase(cHex);
+    }
+}
@@ -0,0 +1,100 @@
+// File: Randomness.java
+// Striped randomness for nonces, session ids and DH exponents.
+// A fixed set of DRBG stripes (NIST SP 800-90A, each seeded from the platform entropy source); a thread always
+// uses the stripe its identity hash maps to, so concurrent callers rarely meet on the same lock. The stripe count
+// is fixed at start-up (-Drng.stripes, default 2 x cores rounded up to a power of two), so pool threads coming and
+// going never create generators or buffers.
+// Short requests (sids, nonces: up to -Drng.batchMax bytes) are served from a pre-filled per-stripe batch
+// (-Drng.batch bytes); handed-out bytes are zeroed in the batch. Exponents are always generated on demand.
+// Reseed policy, per stripe: every -Drng.reseedBytes output bytes (default 1 MiB) or -Drng.reseedMs (default 10 min).
+
+package com.example.saslinkerjava;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.DrbgParameters;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import static java.security.DrbgParameters.Capability.RESEED_ONLY;
+
+public final class Randomness {
+
+    private static final int STRIPES = powerOfTwo(Integer.getInteger("rng.stripes", 2 * Runtime.getRuntime().availableProcessors()));
+    private static final int BATCH = Integer.getInteger("rng.batch", 4096);
+    private static final int BATCH_MAX = Math.min(BATCH, Integer.getInteger("rng.batchMax", 32));
+    private static final long RESEED_BYTES = Long.getLong("rng.reseedBytes", 1L << 20);
+    private static final long RESEED_NANOS = Long.getLong("rng.reseedMs", 10 * 60_000L) * 1_000_000L;
+
+    private static final Stripe[] STRIPE = new Stripe[STRIPES];
+    static { for (int i = 0; i < STRIPES; i++) STRIPE[i] = new Stripe(i); }
+
+    private Randomness() {}
+
+    /** Fresh random bytes, e.g. 16-byte nonces or 10-byte session ids. */
+    static byte[] bytes(int n) {
+        byte[] b = new byte[n];
+        stripe().fill(b);
+        return b;
+    }
+
+    /** Uniform non-negative integer of exactly {@code bits} random bits, as {@code new BigInteger(bits, rng)}. */
+    static BigInteger exponent(int bits) {
+        byte[] b = new byte[(bits + 7) / 8];
+        stripe().generate(b); // secret: never staged in a batch
+        int excess = b.length * 8 - bits;
+        b[0] &= (byte) (0xFF >>> excess);
+        BigInteger v = new BigInteger(1, b);
+        Arrays.fill(b, (byte) 0);
+        return v;
+    }
+
+    static int stripes() { return STRIPES; }
+
+    private static Stripe stripe() {
+        int h = System.identityHashCode(Thread.currentThread());
+        return STRIPE[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static int powerOfTwo(int n) {
+        return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    // ---------- stripe ----------
+    private static final class Stripe {
+        private final SecureRandom drbg;
+        private final byte[] buf = new byte[BATCH];
+        private int pos = BATCH;            // empty until first use
+        private long sinceReseed = 0;
+        private long reseededAt = System.nanoTime();
+
+        Stripe(int index) {
+            // personalization keeps stripes distinct even if two were seeded in the same instant
+            byte[] ps = ("sas-rng|" + index + "|" + System.nanoTime()).getBytes(StandardCharsets.UTF_8);
+            try {
+                drbg = SecureRandom.getInstance("DRBG", DrbgParameters.instantiation(256, RESEED_ONLY, ps));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("DRBG unavailable", e);
+            }
+        }
+
+        synchronized void fill(byte[] out) {
+            if (out.length > BATCH_MAX) { generate(out); return; }
+            if (BATCH - pos < out.length) { generate(buf); pos = 0; }
+            System.arraycopy(buf, pos, out, 0, out.length);
+            Arrays.fill(buf, pos, pos + out.length, (byte) 0); // handed-out bytes don't linger in the batch
+            pos += out.length;
+        }
+
+        synchronized void generate(byte[] out) {
+            if (sinceReseed >= RESEED_BYTES || System.nanoTime() - reseededAt >= RESEED_NANOS) {
+                drbg.reseed();
+                sinceReseed = 0;
+                reseededAt = System.nanoTime();
+            }
+            drbg.nextBytes(out);
+            sinceReseed += out.length;
+        }
+    }
+}
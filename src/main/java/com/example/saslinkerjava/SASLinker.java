@@ -43,12 +43,10 @@ public class SASLinker {
     }
 
     private static void generateDHKeyPair() throws NoSuchAlgorithmException {
-        SecureRandom random = new SecureRandom();
-        privateKey = new BigInteger(2048, random).mod(P);
+        privateKey = Randomness.exponent(2048).mod(P);
         publicKey = G.modPow(privateKey, P);
 
-        byte[] nonceBytes = new byte[16];
-        random.nextBytes(nonceBytes);
+        byte[] nonceBytes = Randomness.bytes(16);
         randomNonce = Base64.getEncoder().encodeToString(nonceBytes);
 
         System.out.println("\nPublic Key (first 32 hex): " + publicKey.toString(16).substring(0, 32) + "...");
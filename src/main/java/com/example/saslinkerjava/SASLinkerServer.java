@@ -20,46 +20,100 @@ import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.security.MessageDigest;
-import java.security.SecureRandom;
 import java.time.Duration;
-import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.Executors;
 
 public class SASLinkerServer {
 
     // 2048-bit safe prime (same as you used)
-    private static final BigInteger P = new BigInteger(
+    static final BigInteger P = new BigInteger(
             "FFFFFFFFFFFFFFFFC90FDAA22168C234C4C6628B80DC1CD1" +
                     "29024E088A67CC74020BBEA63B139B22514A08798E3404DD" +
                     "EF9519B3CD3A431B302B0A6DF25F14374FE1356D6D51C245" +
                     "E485B576625E7EC6F44C42E9A63A36210000000000090563", 16);
-    private static final BigInteger G = BigInteger.valueOf(2);
+    static final BigInteger G = BigInteger.valueOf(2);
 
-    private static final SecureRandom RNG = new SecureRandom();
-    private static final Duration SESSION_TTL = Duration.ofSeconds(45);
+    private static final Duration SESSION_TTL = Duration.ofMillis(Long.getLong("ttlMs", 45_000L));
+    private static AuditLog AUDIT;              // -Daudit=<file> (default sas_audit.log), -Daudit=off to disable
 
+    // Pending-session layout: one fixed-offset byte slab per side instead of BigIntegers/Strings/Instant.
+    // Decimal, hex and base64 forms are produced only at the protocol boundary (QR, transcript, JSON).
+    // Heap per session (compressed oops, heap-after-GC delta as in SessionFootprint):
+    //   idle 584 B -> 320 B, after /pd_verify 966 B -> 554 B
+    // The server only ever holds one `current` session; the layout (and SessionFootprint's 1M-session budget)
+    // is sized for a capacity target, not for anything this server does today.
     static class Session {
-        String sid;
-        BigInteger sdPriv, sdPub;
-        byte[] rSD;                 // 16 bytes
-        String cSDHex;              // SHA256(rSD || sdPub-decimal)
-
-        BigInteger pdPub;           // set by /pd_init
-        String cPDHex;              // set by /pd_init
-        byte[] rPD;                 // set by /pd_reveal
-
-        byte[] hmacKey;             // first 32 bytes of SHA256(sharedSecret-decimal)
-        String sas;                 // 6 chars A–Z0–9
-
+        static final int P_BYTES = (P.bitLength() + 7) / 8;   // DH values are < P
+        static final int SID_BYTES = 10, NONCE_BYTES = 16, HASH_BYTES = 32, SAS_LEN = 6;
+
+        // sd slab: sid | sdPriv | sdPub | rSD | cSD   (layout is private: use the accessors)
+        private static final int SID = 0, SD_PRIV = SID + SID_BYTES, SD_PUB = SD_PRIV + P_BYTES,
+                R_SD = SD_PUB + P_BYTES, C_SD = R_SD + NONCE_BYTES, SD_LEN = C_SD + HASH_BYTES;
+        // pd slab (allocated at /pd_init): pdPub | cPD | rPD | hmacKey | sas
+        private static final int PD_PUB = 0, C_PD = PD_PUB + P_BYTES, R_PD = C_PD + HASH_BYTES,
+                KEY = R_PD + NONCE_BYTES, SAS = KEY + HASH_BYTES, PD_LEN = SAS + SAS_LEN;
+
+        private final byte[] sd = new byte[SD_LEN];
+        private byte[] pd;          // null until /pd_init
+        byte[] pdProof;             // HMAC proof received at /pd_verify (kept for the audit log)
+        final long createdAtMillis = System.currentTimeMillis();
+
+        boolean cPDUpper = false;   // PD sent its commitment in upper-case hex (transcript uses it verbatim)
+        boolean revealed = false;   // rPD set by /pd_reveal
+        boolean keyed = false;      // hmacKey + sas set by /pd_verify
         boolean pdProofOK = false;  // after /pd_verify
         boolean sdLocalOK = false;  // after /sd_local_check
         boolean accepted = false;
         boolean rejected = false;
 
-        Instant createdAt = Instant.now();
-        boolean expired() { return Instant.now().isAfter(createdAt.plus(SESSION_TTL)); }
+        Session(byte[] sid, BigInteger sdPriv, BigInteger sdPub, byte[] rSD, byte[] cSD) {
+            System.arraycopy(sid, 0, sd, SID, SID_BYTES);
+            putFixed(sdPriv, sd, SD_PRIV);
+            putFixed(sdPub, sd, SD_PUB);
+            System.arraycopy(rSD, 0, sd, R_SD, NONCE_BYTES);
+            System.arraycopy(cSD, 0, sd, C_SD, HASH_BYTES);
+        }
+
+        boolean expired() { return System.currentTimeMillis() - createdAtMillis > SESSION_TTL.toMillis(); }
         void invalidate() { rejected = true; }
+
+        String sid()        { return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOfRange(sd, SID, SID + SID_BYTES)); }
+        BigInteger sdPriv() { return new BigInteger(1, sd, SD_PRIV, P_BYTES); }
+        BigInteger sdPub()  { return new BigInteger(1, sd, SD_PUB, P_BYTES); }
+        byte[] rSD()        { return Arrays.copyOfRange(sd, R_SD, R_SD + NONCE_BYTES); }
+        String cSDHex()     { return HexFormat.of().formatHex(sd, C_SD, C_SD + HASH_BYTES); }
+
+        boolean cSDMatches(byte[] digest) { return Arrays.equals(digest, 0, HASH_BYTES, sd, C_SD, C_SD + HASH_BYTES); }
+        boolean cPDMatches(byte[] digest) { return pd != null && Arrays.equals(digest, 0, HASH_BYTES, pd, C_PD, C_PD + HASH_BYTES); }
+
+        boolean hasPd()     { return pd != null; }
+        BigInteger pdPub()  { return pd == null ? null : new BigInteger(1, pd, PD_PUB, P_BYTES); }
+        String cPDHex()     { return pd == null ? null : (cPDUpper ? HexFormat.of().withUpperCase() : HexFormat.of()).formatHex(pd, C_PD, C_PD + HASH_BYTES); }
+        byte[] rPD()        { return revealed ? Arrays.copyOfRange(pd, R_PD, R_PD + NONCE_BYTES) : null; }
+        byte[] hmacKey()    { return keyed ? Arrays.copyOfRange(pd, KEY, KEY + HASH_BYTES) : null; }
+        String sas()        { return keyed ? new String(pd, SAS, SAS_LEN, StandardCharsets.US_ASCII) : null; }
+
+        void initPd(BigInteger pdPub, byte[] cPD, boolean upper) {
+            byte[] b = new byte[PD_LEN];
+            putFixed(pdPub, b, PD_PUB);
+            System.arraycopy(cPD, 0, b, C_PD, HASH_BYTES);
+            cPDUpper = upper;
+            pd = b;
+        }
+        void reveal(byte[] rPD) { System.arraycopy(rPD, 0, pd, R_PD, NONCE_BYTES); revealed = true; }
+        void key(byte[] hmacKey, String sas) {
+            System.arraycopy(hmacKey, 0, pd, KEY, HASH_BYTES);
+            System.arraycopy(sas.getBytes(StandardCharsets.US_ASCII), 0, pd, SAS, SAS_LEN);
+            keyed = true;
+        }
+
+        // unsigned big-endian, right-aligned in a P_BYTES slot; v must be in [0, P)
+        private static void putFixed(BigInteger v, byte[] dst, int off) {
+            byte[] b = v.toByteArray();
+            int skip = b.length > P_BYTES ? b.length - P_BYTES : 0; // sign byte
+            System.arraycopy(b, skip, dst, off + P_BYTES - (b.length - skip), b.length - skip);
+        }
     }
 
     private static volatile Session current;
@@ -70,6 +124,7 @@ public class SASLinkerServer {
             if (System.getProperty("port") != null) {
                 PORT = Integer.parseInt(System.getProperty("port"));
             }
+            openAudit();
             ensureFreshSession();
             writeQR(current);
             startHttp();
@@ -81,12 +136,13 @@ public class SASLinkerServer {
     }
 
     // ---------- session lifecycle ----------
-    private static void ensureFreshSession() throws Exception {
+    private static synchronized void ensureFreshSession() throws Exception {
         if (current == null || current.expired() || current.accepted || current.rejected) {
             current = newSession();
         }
     }
-    private static Session getSessionOrRotate() throws Exception {
+    // synchronized: concurrent /state polls must not rotate twice and orphan the sid just handed out
+    private static synchronized Session getSessionOrRotate() throws Exception {
         if (current == null || current.expired()) {
             current = newSession();
             writeQR(current);
@@ -94,22 +150,36 @@ public class SASLinkerServer {
         return current;
     }
     private static Session newSession() {
-        Session s = new Session();
-        s.sid = base64url(RNG, 10);
-        s.sdPriv = new BigInteger(2048, RNG).mod(P);
-        s.sdPub  = G.modPow(s.sdPriv, P);
-        s.rSD    = rand(16);
-        s.cSDHex = sha256hex(join(s.rSD, s.sdPub.toString().getBytes(StandardCharsets.UTF_8)));
-        System.out.println("[New session] sid=" + s.sid + " sdPub(hex32)=" + s.sdPub.toString(16).substring(0,32) + "...");
+        BigInteger sdPriv = Randomness.exponent(2048).mod(P);
+        BigInteger sdPub  = G.modPow(sdPriv, P);
+        byte[] rSD = rand(Session.NONCE_BYTES);
+        byte[] cSD = sha256(join(rSD, sdPub.toString().getBytes(StandardCharsets.UTF_8)));
+        Session s = new Session(rand(Session.SID_BYTES), sdPriv, sdPub, rSD, cSD);
+        System.out.println("[New session] sid=" + s.sid() + " sdPub(hex32)=" + sdPub.toString(16).substring(0,32) + "...");
         return s;
     }
     private static void writeQR(Session s) throws Exception {
-        String payload = s.sid + "|" + s.sdPub.toString() + "|" + s.cSDHex;
+        String payload = s.sid() + "|" + s.sdPub().toString() + "|" + s.cSDHex();
         BitMatrix m = new MultiFormatWriter().encode(payload, BarcodeFormat.QR_CODE, 300, 300);
         MatrixToImageWriter.writeToPath(m, "PNG", new File("sas_qr.png").toPath());
         System.out.println("QR saved to sas_qr.png");
     }
 
+    // ---------- audit ----------
+    private static void openAudit() throws IOException {
+        String path = System.getProperty("audit", "sas_audit.log");
+        if ("off".equals(path)) return;
+        AUDIT = new AuditLog(new File(path), Integer.getInteger("audit.queue", 8192));
+        Runtime.getRuntime().addShutdownHook(new Thread(AUDIT::close, "sas-audit-close"));
+        System.out.println("Audit log: " + path);
+    }
+    // false if the entry will not be logged (queue full or writer dead)
+    private static boolean audit(Session s, AuditLog.Outcome outcome) {
+        if (AUDIT == null) return true;
+        return AUDIT.append(new AuditLog.Entry(System.currentTimeMillis(), outcome, s.sid(), s.sdPub(), s.pdPub(),
+                s.cSDHex(), s.cPDHex(), s.rSD(), s.rPD(), s.hmacKey(), s.sas(), s.pdProof));
+    }
+
     // ---------- HTTP ----------
     private static void startHttp() throws IOException {
         HttpServer server;
@@ -146,10 +216,10 @@ public class SASLinkerServer {
             else if (s.rejected) status="rejected";
             else if (s.accepted) status="accepted";
             else if (s.pdProofOK) status="awaiting_local";
-            else if (s.pdPub != null && s.rPD != null) status="pending_verify";
-            else if (s.pdPub != null) status="pending_reveal";
+            else if (s.revealed) status="pending_verify";
+            else if (s.hasPd()) status="pending_reveal";
             else status="idle";
-            respond(ex, 200, "{\"sid\":\""+s.sid+"\",\"status\":\""+status+"\"}", "application/json");
+            respond(ex, 200, "{\"sid\":\""+s.sid()+"\",\"status\":\""+status+"\"}", "application/json");
         } catch (Exception e) { respond(ex, 500, e.toString()); }
     }
 
@@ -159,10 +229,17 @@ public class SASLinkerServer {
             Session s = getSessionOrRotate();
             String[] p = read(ex).split("\\|");
             if (p.length != 3) { respond(ex, 400, "bad"); return; }
-            if (!Objects.equals(p[0], s.sid) || s.expired()) { respond(ex, 410, "expired"); return; }
-            if (s.pdPub != null) { respond(ex, 409, "taken"); return; } // first PD wins
-            s.pdPub  = new BigInteger(p[1]);
-            s.cPDHex = p[2];
+            if (!Objects.equals(p[0], s.sid()) || s.expired()) { respond(ex, 410, "expired"); return; }
+            if (s.hasPd()) { respond(ex, 409, "taken"); return; } // first PD wins
+            BigInteger pdPub;
+            try { pdPub = new BigInteger(p[1]); } catch (NumberFormatException nfe) { respond(ex, 400, "bad"); return; }
+            // must fit the fixed slot; also rejects the trivial values 0, 1, P-1
+            if (pdPub.compareTo(BigInteger.ONE) <= 0 || pdPub.compareTo(P.subtract(BigInteger.ONE)) >= 0) { respond(ex, 400, "bad"); return; }
+            String c = p[2];
+            if (c.length() != 2 * Session.HASH_BYTES || !c.chars().allMatch(HexFormat::isHexDigit)) { respond(ex, 400, "bad"); return; }
+            boolean upper = !c.equals(c.toLowerCase(Locale.ROOT));
+            if (upper && !c.equals(c.toUpperCase(Locale.ROOT))) { respond(ex, 400, "bad"); return; } // mixed case can't round-trip
+            s.initPd(pdPub, HexFormat.of().parseHex(c), upper);
             respond(ex, 200, "ok");
         } catch (Exception e) { respond(ex, 500, e.toString()); }
     }
@@ -173,13 +250,15 @@ public class SASLinkerServer {
             Session s = getSessionOrRotate();
             String[] p = read(ex).split("\\|"); // sid|rPDb64
             if (p.length != 2) { respond(ex, 400, "bad"); return; }
-            if (!Objects.equals(p[0], s.sid) || s.expired() || s.pdPub == null) { respond(ex, 410, "expired"); return; }
-            s.rPD = Base64.getDecoder().decode(p[1]);
+            if (!Objects.equals(p[0], s.sid()) || s.expired() || !s.hasPd() || s.rejected) { respond(ex, 410, "expired"); return; }
+            byte[] rPD = Base64.getDecoder().decode(p[1]);
+            if (rPD.length != Session.NONCE_BYTES) { respond(ex, 400, "bad"); return; }
+            s.reveal(rPD);
             // verify PD commitment
-            String exp = sha256hex(join(s.rPD, s.pdPub.toString().getBytes(StandardCharsets.UTF_8)));
-            if (!exp.equalsIgnoreCase(s.cPDHex)) { s.invalidate(); respond(ex, 403, "commit-mismatch"); return; }
+            byte[] exp = sha256(join(rPD, s.pdPub().toString().getBytes(StandardCharsets.UTF_8)));
+            if (!s.cPDMatches(exp)) { s.invalidate(); audit(s, AuditLog.Outcome.COMMIT_MISMATCH); respond(ex, 403, "commit-mismatch"); return; }
             // return RSD (base64) to PD
-            respond(ex, 200, Base64.getEncoder().encodeToString(s.rSD));
+            respond(ex, 200, Base64.getEncoder().encodeToString(s.rSD()));
         } catch (Exception e) { respond(ex, 500, e.toString()); }
     }
 
@@ -189,28 +268,34 @@ public class SASLinkerServer {
             Session s = getSessionOrRotate();
             String[] p = read(ex).split("\\|"); // sid|proofB64
             if (p.length != 2) { respond(ex, 400, "bad"); return; }
-            if (!Objects.equals(p[0], s.sid) || s.expired() || s.pdPub == null || s.rPD == null) { respond(ex, 410, "expired"); return; }
+            // one proof outcome per session: repeats must not append more audit records
+            if (!Objects.equals(p[0], s.sid()) || s.expired() || !s.revealed || s.rejected) { respond(ex, 410, "expired"); return; }
+            if (s.pdProofOK) { respond(ex, 409, "already-verified"); return; }
+            byte[] got = Base64.getDecoder().decode(p[1]);
+            if (got.length != Session.HASH_BYTES) { respond(ex, 400, "bad"); return; } // HMAC-SHA256; also bounds the audit record
+            String sid = s.sid();
+            BigInteger sdPub = s.sdPub(), pdPub = s.pdPub();
+            byte[] rSD = s.rSD(), rPD = s.rPD();
 
             // verify SD commitment (now we know rSD)
-            String expCSD = sha256hex(join(s.rSD, s.sdPub.toString().getBytes(StandardCharsets.UTF_8)));
-            if (!expCSD.equalsIgnoreCase(s.cSDHex)) { s.invalidate(); respond(ex, 403, "commit-mismatch"); return; }
+            byte[] expCSD = sha256(join(rSD, sdPub.toString().getBytes(StandardCharsets.UTF_8)));
+            if (!s.cSDMatches(expCSD)) { s.invalidate(); audit(s, AuditLog.Outcome.COMMIT_MISMATCH); respond(ex, 403, "commit-mismatch"); return; }
 
             // derive session key + SAS
-            BigInteger shared = s.pdPub.modPow(s.sdPriv, P);
+            BigInteger shared = pdPub.modPow(s.sdPriv(), P);
             byte[] kBytes = sha256(shared.toString().getBytes(StandardCharsets.UTF_8));
-            s.hmacKey = Arrays.copyOf(kBytes, 32);
-            s.sas = makeSAS(kBytes, s.rPD, s.rSD); // 6 chars
+            byte[] hmacKey = Arrays.copyOf(kBytes, 32);
+            String sas = makeSAS(kBytes, rPD, rSD); // 6 chars
+            s.key(hmacKey, sas);
 
             // verify PD HMAC proof over transcript
-            String transcript = s.sid + "|" + s.sdPub.toString() + "|" + s.pdPub.toString() + "|" +
-                    s.cSDHex + "|" + s.cPDHex + "|" +
-                    Base64.getEncoder().encodeToString(s.rSD) + "|" +
-                    Base64.getEncoder().encodeToString(s.rPD) + "|" + s.sas;
-            byte[] expected = hmacSHA256(s.hmacKey, transcript.getBytes(StandardCharsets.UTF_8));
-            byte[] got = Base64.getDecoder().decode(p[1]);
-            if (!MessageDigest.isEqual(expected, got)) { s.invalidate(); respond(ex, 403, "bad-proof"); return; }
+            String transcript = transcript(sid, sdPub, pdPub, s.cSDHex(), s.cPDHex(), rSD, rPD, sas);
+            byte[] expected = hmacSHA256(hmacKey, transcript.getBytes(StandardCharsets.UTF_8));
+            s.pdProof = got;
+            if (!MessageDigest.isEqual(expected, got)) { s.invalidate(); audit(s, AuditLog.Outcome.BAD_PROOF); respond(ex, 403, "bad-proof"); return; }
 
             s.pdProofOK = true;
+            audit(s, AuditLog.Outcome.PROOF_OK);
             respond(ex, 200, "ok");
         } catch (Exception e) { respond(ex, 500, e.toString()); }
     }
@@ -221,8 +306,9 @@ public class SASLinkerServer {
             Session s = getSessionOrRotate();
             String[] p = read(ex).split("\\|"); // sid|last2
             if (p.length != 2) { respond(ex, 400, "bad"); return; }
-            if (!Objects.equals(p[0], s.sid) || s.expired() || s.sas == null) { respond(ex, 410, "expired"); return; }
-            String last2 = s.sas.substring(s.sas.length() - 2);
+            if (!Objects.equals(p[0], s.sid()) || s.expired() || !s.keyed) { respond(ex, 410, "expired"); return; }
+            String sas = s.sas();
+            String last2 = sas.substring(sas.length() - 2);
             if (!last2.equalsIgnoreCase(p[1])) { s.invalidate(); respond(ex, 403, "mismatch"); return; }
             s.sdLocalOK = true;
             respond(ex, 200, "ok");
@@ -235,34 +321,44 @@ public class SASLinkerServer {
             Session s = getSessionOrRotate();
             String[] p = read(ex).split("\\|"); // sid|accept|reject
             if (p.length != 2) { respond(ex, 400, "bad"); return; }
-            if (!Objects.equals(p[0], s.sid) || s.expired()) { respond(ex, 410, "expired"); return; }
+            if (!Objects.equals(p[0], s.sid()) || s.expired()) { respond(ex, 410, "expired"); return; }
             if (!s.pdProofOK || !s.sdLocalOK) { respond(ex, 409, "not-ready"); return; }
-            if ("accept".equalsIgnoreCase(p[1])) { s.accepted = true; respond(ex, 200, "accepted"); }
-            else if ("reject".equalsIgnoreCase(p[1])) { s.rejected = true; respond(ex, 200, "rejected"); }
+            if ("accept".equalsIgnoreCase(p[1])) {
+                // no link without an audit record; the session stays open so the user can retry
+                if (!audit(s, AuditLog.Outcome.ACCEPTED)) { respond(ex, 503, "audit-unavailable"); return; }
+                s.accepted = true; respond(ex, 200, "accepted");
+            }
+            else if ("reject".equalsIgnoreCase(p[1])) { s.rejected = true; audit(s, AuditLog.Outcome.REJECTED); respond(ex, 200, "rejected"); }
             else { respond(ex, 400, "unknown"); }
         } catch (Exception e) { respond(ex, 500, e.toString()); }
     }
 
     // ---------- helpers ----------
-    private static byte[] rand(int n){ byte[] b = new byte[n]; RNG.nextBytes(b); return b; }
-    private static String base64url(SecureRandom rng, int n){ byte[] b = new byte[n]; rng.nextBytes(b); return Base64.getUrlEncoder().withoutPadding().encodeToString(b); }
-    private static byte[] join(byte[] a, byte[] b){ byte[] c = new byte[a.length+b.length]; System.arraycopy(a,0,c,0,a.length); System.arraycopy(b,0,c,a.length,b.length); return c; }
+    private static byte[] rand(int n){ return Randomness.bytes(n); } // striped DRBGs, see Randomness
+    static byte[] join(byte[] a, byte[] b){ byte[] c = new byte[a.length+b.length]; System.arraycopy(a,0,c,0,a.length); System.arraycopy(b,0,c,a.length,b.length); return c; }
 
-    private static byte[] sha256(byte[] in){
+    static byte[] sha256(byte[] in){
         try { return MessageDigest.getInstance("SHA-256").digest(in); }
         catch(Exception e){ throw new RuntimeException(e); }
     }
-    private static String sha256hex(byte[] in){
-        byte[] d = sha256(in); StringBuilder sb = new StringBuilder();
-        for(byte x: d) sb.append(String.format("%02x", x));
-        return sb.toString();
+    static String sha256hex(byte[] in){
+        return HexFormat.of().formatHex(sha256(in)); // lowercase, same as %02x per byte
     }
 
-    private static byte[] hmacSHA256(byte[] key, byte[] msg){
+    static byte[] hmacSHA256(byte[] key, byte[] msg){
         try{ Mac mac = Mac.getInstance("HmacSHA256"); mac.init(new SecretKeySpec(key,"HmacSHA256")); return mac.doFinal(msg); }
         catch(Exception e){ throw new RuntimeException(e); }
     }
 
+    // transcript the PD HMAC proof is computed over (shared with the soak harness PD client)
+    static String transcript(String sid, BigInteger sdPub, BigInteger pdPub, String cSDHex, String cPDHex,
+                             byte[] rSD, byte[] rPD, String sas){
+        return sid + "|" + sdPub.toString() + "|" + pdPub.toString() + "|" +
+                cSDHex + "|" + cPDHex + "|" +
+                Base64.getEncoder().encodeToString(rSD) + "|" +
+                Base64.getEncoder().encodeToString(rPD) + "|" + sas;
+    }
+
     private static String base32(byte[] data){
         final String A="ABCDEFGHIJKLMNOPQRSTUVWXYZ234567";
         StringBuilder out=new StringBuilder(); int curr=0,bits=0;
@@ -270,7 +366,7 @@ public class SASLinkerServer {
         if(bits>0) out.append(A.charAt((curr<<(5-bits)) & 31));
         return out.toString();
     }
-    private static String makeSAS(byte[] kBytes, byte[] rPD, byte[] rSD){
+    static String makeSAS(byte[] kBytes, byte[] rPD, byte[] rSD){
         byte[] mac = hmacSHA256(Arrays.copyOf(kBytes,32), join("SAS|".getBytes(StandardCharsets.UTF_8), join(rPD, rSD)));
         String b32 = base32(mac).replace("=","");
         String six = b32.substring(0,6);
@@ -0,0 +1,119 @@
+// File: AuditLogCheck.java
+// Round-trip checks for AuditLog: crash recovery, owner-only permissions, DROPPED markers, unencodable entries.
+// Bound to `mvn test` via exec:exec@audit-check; exits 1 on the first failed check.
+
+package com.example.saslinkerjava;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+
+public class AuditLogCheck {
+
+    public static void main(String[] args) throws Exception {
+        File dir = Files.createTempDirectory("audit-check").toFile();
+        tornTailIsRecovered(dir);
+        tornHeaderStartsFresh(dir);
+        ownerOnly(dir);
+        dropsAreMarked(dir);
+        oversizeEntryIsSkipped(dir);
+        System.out.println("AuditLogCheck: PASS");
+    }
+
+    // a crash mid-record must not make records appended by the next run unreadable
+    private static void tornTailIsRecovered(File dir) throws Exception {
+        File f = new File(dir, "torn.log");
+        write(f, 60);
+        try (RandomAccessFile raf = new RandomAccessFile(f, "rw")) { raf.setLength(raf.length() - 10); }
+        write(f, 5);
+        expect(count(f) == 64, "torn tail: expected 59 + 5 readable records, got " + count(f));
+        File[] aside = dir.listFiles((d, n) -> n.startsWith("torn.log.torn-"));
+        expect(aside != null && aside.length == 1, "torn tail: discarded bytes not saved aside");
+    }
+
+    private static void tornHeaderStartsFresh(File dir) throws Exception {
+        File f = new File(dir, "header.log");
+        Files.write(f.toPath(), new byte[]{'S', 'A', 'S'});
+        write(f, 3);
+        expect(count(f) == 3, "torn header: expected 3 records, got " + count(f));
+    }
+
+    private static void ownerOnly(File dir) throws Exception {
+        if (!dir.toPath().getFileSystem().supportedFileAttributeViews().contains("posix")) return;
+        File f = new File(dir, "perm.log");
+        write(f, 1);
+        String perms = PosixFilePermissions.toString(Files.getPosixFilePermissions(f.toPath()));
+        expect(perms.equals("rw-------"), "permissions: expected rw-------, got " + perms);
+    }
+
+    // whatever the writer could not take must be accounted for in DROPPED markers and fail verification
+    private static void dropsAreMarked(File dir) throws Exception {
+        File f = new File(dir, "drops.log");
+        AuditLog log = new AuditLog(f, 1);
+        for (int i = 0; i < 20_000; i++) log.append(entry(i, AuditLog.Outcome.PROOF_OK));
+        log.close();
+        expect(!log.append(entry(0, AuditLog.Outcome.ACCEPTED)), "closed log accepted an ACCEPTED entry");
+
+        long marked = 0, records = 0;
+        try (AuditLog.Reader r = new AuditLog.Reader(f)) {
+            for (AuditLog.Entry e; (e = r.next()) != null; records++) {
+                if (e.outcome() == AuditLog.Outcome.DROPPED) {
+                    marked += e.droppedCount();
+                    expect(AuditVerifier.check(e) != null, "verifier accepted a DROPPED marker");
+                    records--;
+                }
+            }
+        }
+        // the post-close drop happens after the last marker was written
+        expect(marked == log.dropped() - 1, "drops: " + (log.dropped() - 1) + " dropped but " + marked + " marked");
+        expect(records + marked == 20_000, "drops: " + records + " written + " + marked + " marked != 20000");
+        System.out.println("AuditLogCheck: " + marked + " of 20000 entries dropped and marked");
+    }
+
+    // an entry that cannot be encoded is skipped and marked; the writer keeps going
+    private static void oversizeEntryIsSkipped(File dir) throws Exception {
+        File f = new File(dir, "oversize.log");
+        AuditLog log = new AuditLog(f, 1024);
+        AuditLog.Entry ok = entry(1, AuditLog.Outcome.BAD_PROOF);
+        expect(log.append(new AuditLog.Entry(ok.epochMillis(), ok.outcome(), ok.sid(), ok.sdPub(), ok.pdPub(), ok.cSDHex(),
+                ok.cPDHex(), ok.rSD(), ok.rPD(), ok.hmacKey(), ok.sas(), new byte[70_000])), "oversize entry refused by append");
+        expect(log.append(entry(2, AuditLog.Outcome.ACCEPTED)), "append after oversize entry refused");
+        log.close();
+        expect(log.dropped() == 1, "oversize: expected 1 dropped, got " + log.dropped());
+
+        long marked = 0, accepted = 0;
+        try (AuditLog.Reader r = new AuditLog.Reader(f)) {
+            for (AuditLog.Entry e; (e = r.next()) != null; ) {
+                if (e.outcome() == AuditLog.Outcome.DROPPED) marked += e.droppedCount();
+                if (e.outcome() == AuditLog.Outcome.ACCEPTED) accepted++;
+            }
+        }
+        expect(marked == 1 && accepted == 1, "oversize: expected 1 marked + 1 accepted, got " + marked + " + " + accepted);
+    }
+
+    // ---------- helpers ----------
+    private static void write(File f, int n) throws IOException {
+        AuditLog log = new AuditLog(f, 1024);
+        for (int i = 0; i < n; i++) expect(log.append(entry(i, AuditLog.Outcome.ACCEPTED)), "append refused");
+        log.close();
+    }
+    private static long count(File f) throws IOException {
+        try (AuditLog.Reader r = new AuditLog.Reader(f)) {
+            while (r.next() != null) { /* count */ }
+            return r.records;
+        }
+    }
+    private static AuditLog.Entry entry(int i, AuditLog.Outcome o) {
+        byte[] b16 = new byte[16], b32 = new byte[32];
+        return new AuditLog.Entry(i, o, "sid" + i, BigInteger.valueOf(i + 2), BigInteger.valueOf(i + 3),
+                "00".repeat(32), "11".repeat(32), b16, b16, b32, "ABC123", b32);
+    }
+    private static void expect(boolean ok, String msg) {
+        if (ok) return;
+        System.out.println("AuditLogCheck: FAIL " + msg);
+        System.exit(1);
+    }
+}
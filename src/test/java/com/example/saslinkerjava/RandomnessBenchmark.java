@@ -0,0 +1,75 @@
+// File: RandomnessBenchmark.java
+// Throughput of session-creation randomness (10-byte sid + 16-byte nonce + 2048-bit exponent) across threads:
+// one shared static SecureRandom (the old SASLinkerServer.RNG) vs striped DRBGs (Randomness), each called directly
+// from 1..N threads. Scaling is bounded by the core count; on a single core expect the two curves to be flat.
+//
+// Run: mvn test-compile exec:exec@rng-bench [-Dbench.threads=16 -Dbench.seconds=3]
+
+package com.example.saslinkerjava;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+public class RandomnessBenchmark {
+
+    private static final int MAX_THREADS = Integer.getInteger("threads", Math.max(8, 2 * Runtime.getRuntime().availableProcessors()));
+    private static final long SECONDS = Long.getLong("seconds", 3);
+
+    private static final SecureRandom SHARED = new SecureRandom();
+    private static volatile long sink;
+
+    interface Op { void run(); }
+
+    public static void main(String[] args) throws Exception {
+        Op shared = () -> {
+            byte[] sid = new byte[10]; SHARED.nextBytes(sid);
+            byte[] nonce = new byte[16]; SHARED.nextBytes(nonce);
+            BigInteger x = new BigInteger(2048, SHARED);
+            sink += sid[0] + nonce[0] + x.signum();
+        };
+        Op local = () -> {
+            byte[] sid = Randomness.bytes(10);
+            byte[] nonce = Randomness.bytes(16);
+            BigInteger x = Randomness.exponent(2048);
+            sink += sid[0] + nonce[0] + x.signum();
+        };
+
+        System.out.println("cores=" + Runtime.getRuntime().availableProcessors() + ", stripes=" + Randomness.stripes() + ", "
+                + SECONDS + "s per point, op = sid + nonce + 2048-bit exponent");
+        System.out.printf("%8s %16s %8s %16s %8s %8s%n", "threads", "shared ops/s", "scale", "striped ops/s", "scale", "speedup");
+        run(shared, 1); run(local, 1); // warm-up
+        double shared1 = 0, local1 = 0;
+        for (int t = 1; t <= MAX_THREADS; t *= 2) {
+            double s = run(shared, t), l = run(local, t);
+            if (t == 1) { shared1 = s; local1 = l; }
+            System.out.printf(Locale.ROOT, "%8d %16.0f %7.2fx %16.0f %7.2fx %7.2fx%n", t, s, s / shared1, l, l / local1, l / s);
+        }
+    }
+
+    private static double run(Op op, int threads) throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long[] window = new long[2];
+        List<Thread> ts = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread th = new Thread(() -> {
+                try { start.await(); } catch (InterruptedException e) { return; }
+                long n = 0;
+                while (System.nanoTime() < window[1]) { op.run(); n++; }
+                ops.add(n);
+            }, "bench-" + i);
+            ts.add(th);
+            th.start();
+        }
+        window[0] = System.nanoTime();
+        window[1] = window[0] + SECONDS * 1_000_000_000L;
+        start.countDown();
+        for (Thread th : ts) th.join();
+        return ops.sum() / (double) SECONDS;
+    }
+}
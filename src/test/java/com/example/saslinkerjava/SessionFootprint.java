@@ -0,0 +1,70 @@
+// File: SessionFootprint.java
+// Heap footprint check for SASLinkerServer.Session.
+// Holds N idle (QR shown, no phone yet) sessions and measures heap-after-GC per session, then does the same
+// for fully keyed sessions (after /pd_verify). Exits 1 if the idle set exceeds the budget.
+// Session material is random of the right size (no modPow): this measures layout, not key generation.
+//
+// Run by `mvn test` (exec:exec@session-footprint: -XX:+UseSerialGC -Xmx1g -Dsessions=1000000 -DbudgetMb=350).
+// The server holds a single `current` session; 1M is a capacity target for the layout, not a live workload.
+
+package com.example.saslinkerjava;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigInteger;
+import java.util.Locale;
+import java.util.Random;
+
+import static com.example.saslinkerjava.SASLinkerServer.P;
+
+public class SessionFootprint {
+
+    private static final int SESSIONS = Integer.getInteger("sessions", 1_000_000);
+    private static final long BUDGET_MB = Long.getLong("budgetMb", 350);   // 1M idle sessions, see Session layout note
+
+    public static void main(String[] args) {
+        long idle = measure(SESSIONS, false);
+        System.out.printf(Locale.ROOT, "idle : %,d sessions  %.1f B/session  %.1f MB (budget %d MB)%n",
+                SESSIONS, idle / (double) SESSIONS, idle / 1e6, BUDGET_MB);
+
+        int keyedN = Math.max(1, SESSIONS / 10);
+        long keyed = measure(keyedN, true);
+        System.out.printf(Locale.ROOT, "keyed: %,d sessions  %.1f B/session  %.1f MB%n",
+                keyedN, keyed / (double) keyedN, keyed / 1e6);
+
+        if (idle > BUDGET_MB * 1_000_000L) {
+            System.out.println("FAIL idle sessions exceed heap budget");
+            System.exit(1);
+        }
+        System.out.println("PASS");
+    }
+
+    // bytes retained by n sessions (plus the n-slot holder array, < 1% of the total)
+    private static long measure(int n, boolean keyed) {
+        Random rnd = new Random(42);
+        gc();
+        long before = heapUsed();
+        SASLinkerServer.Session[] held = new SASLinkerServer.Session[n];
+        byte[] sid = new byte[SASLinkerServer.Session.SID_BYTES], nonce = new byte[SASLinkerServer.Session.NONCE_BYTES],
+               hash = new byte[SASLinkerServer.Session.HASH_BYTES];
+        for (int i = 0; i < n; i++) {
+            rnd.nextBytes(sid); rnd.nextBytes(nonce); rnd.nextBytes(hash);
+            SASLinkerServer.Session s = new SASLinkerServer.Session(sid, random(rnd), random(rnd), nonce, hash);
+            if (keyed) {
+                s.initPd(random(rnd), hash, false);
+                s.reveal(nonce);
+                s.key(hash, "ABC123");
+                s.pdProof = hash.clone();
+                s.pdProofOK = true;
+            }
+            held[i] = s;
+        }
+        gc();
+        long after = heapUsed();
+        java.lang.ref.Reference.reachabilityFence(held);
+        return after - before;
+    }
+
+    private static BigInteger random(Random rnd) { return new BigInteger(P.bitLength(), rnd).mod(P); }
+    private static void gc() { for (int i = 0; i < 3; i++) System.gc(); }
+    private static long heapUsed() { return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(); }
+}
@@ -0,0 +1,352 @@
+// File: SoakHarness.java
+// Long-running soak / leak-detection harness for SASLinkerServer.
+// Starts the server in-process, plays the PD (phone) side of the protocol in a loop with a mix of
+// successful, expired, rejected and malformed handshakes, and samples heap-after-GC, thread count,
+// open FDs and per-endpoint handshake latency percentiles into a CSV report. Exits 1 on sustained growth.
+// Latency covers only the handshake calls (/pd_init, /pd_reveal, /pd_verify, /sd_local_check, /confirm) of
+// well-formed handshakes; browser polling, QR fetches and malformed probes are not timed.
+//
+// Run: mvn test-compile exec:exec@soak -Dsoak.minutes=60 -Dsoak.sampleSec=30
+
+package com.example.saslinkerjava;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.saslinkerjava.SASLinkerServer.*;
+
+public class SoakHarness {
+
+    // ---------- config (system properties, like -Dport on the server) ----------
+    private static final long MINUTES      = Long.getLong("soak.minutes", 10);
+    private static final long SAMPLE_SEC   = Long.getLong("soak.sampleSec", 15);
+    private static final long TTL_MS       = Long.getLong("ttlMs", 750);     // short TTL so sessions rotate often
+    private static final int  BROWSERS     = Integer.getInteger("soak.browsers", 2);
+    private static final String CSV        = System.getProperty("soak.csv", "soak.csv");
+    private static final double WARMUP     = Double.parseDouble(System.getProperty("soak.warmup", "0.2"));
+    private static final long HEAP_SLACK   = Long.getLong("soak.heapSlackMb", 8) << 20;
+    private static final long THREAD_SLACK = Long.getLong("soak.threadSlack", 4);
+    private static final long FD_SLACK     = Long.getLong("soak.fdSlack", 8);
+    private static final double MAX_UNEXPECTED_PCT = Double.parseDouble(System.getProperty("soak.maxUnexpectedPct", "1.0"));
+
+    enum Kind { OK, EXPIRED, REJECTED, MALFORMED }
+
+    private static final SecureRandom RND = new SecureRandom();
+    private static final HttpClient HTTP = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private static String base;
+
+    private static final Map<Kind, AtomicLong> done = new EnumMap<>(Kind.class);
+    private static final AtomicLong unexpected = new AtomicLong();
+    static final String[] ENDPOINTS = {"/pd_init", "/pd_reveal", "/pd_verify", "/sd_local_check", "/confirm"};
+    private static final Map<String, List<Long>> latNanos = new LinkedHashMap<>();  // lists guarded by themselves, reset every sample
+    static { for (String e : ENDPOINTS) latNanos.put(e, new ArrayList<>()); }
+    private static volatile boolean running = true;
+
+    record Sample(long elapsedSec, long heapAfterGc, int threads, long fds, long handshakes,
+                  long ok, long expired, long rejected, long malformed, long unexpected,
+                  double[][] latMs) {}   // [endpoint][p50, p95, p99, max]
+
+    public static void main(String[] args) throws Exception {
+        // must be set before SASLinkerServer is initialised (SESSION_TTL / PORT are read once)
+        System.setProperty("ttlMs", Long.toString(TTL_MS));
+        if (System.getProperty("port") == null) System.setProperty("port", "18889");
+        base = "http://localhost:" + System.getProperty("port");
+        for (Kind k : Kind.values()) done.put(k, new AtomicLong());
+
+        SASLinkerServer.main(new String[0]);
+        warmUp();
+
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < BROWSERS; i++) workers.add(start("soak-browser-" + i, SoakHarness::browserLoop));
+        workers.add(start("soak-pd", SoakHarness::pdLoop));
+
+        List<Sample> samples = new ArrayList<>();
+        long t0 = System.nanoTime(), end = t0 + TimeUnit.MINUTES.toNanos(MINUTES);
+        try (PrintWriter csv = new PrintWriter(new FileWriter(CSV))) {
+            StringBuilder head = new StringBuilder("elapsed_s,heap_after_gc_bytes,threads,open_fds,handshakes,ok,expired,rejected,malformed,unexpected");
+            for (String e : ENDPOINTS) for (String q : new String[]{"p50", "p95", "p99", "max"}) head.append(',').append(e.substring(1)).append('_').append(q).append("_ms");
+            csv.println(head);
+            while (System.nanoTime() < end) {
+                Thread.sleep(Math.min(TimeUnit.SECONDS.toMillis(SAMPLE_SEC), Math.max(1, TimeUnit.NANOSECONDS.toMillis(end - System.nanoTime()))));
+                Sample s = sample(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - t0));
+                samples.add(s);
+                csv.printf(Locale.ROOT, "%d,%d,%d,%d,%d,%d,%d,%d,%d,%d",
+                        s.elapsedSec, s.heapAfterGc, s.threads, s.fds, s.handshakes,
+                        s.ok, s.expired, s.rejected, s.malformed, s.unexpected);
+                StringBuilder p99 = new StringBuilder();
+                for (int i = 0; i < ENDPOINTS.length; i++) {
+                    for (double v : s.latMs[i]) csv.printf(Locale.ROOT, ",%.2f", v);
+                    p99.append(String.format(Locale.ROOT, " %s=%.1f", ENDPOINTS[i].substring(1), s.latMs[i][2]));
+                }
+                csv.println();
+                csv.flush();
+                System.out.printf(Locale.ROOT, "[soak] t=%ds heap=%dKB threads=%d fds=%d handshakes=%d unexpected=%d p99ms:%s%n",
+                        s.elapsedSec, s.heapAfterGc >> 10, s.threads, s.fds, s.handshakes, s.unexpected, p99);
+            }
+        }
+        running = false;
+        for (Thread t : workers) t.join(TimeUnit.SECONDS.toMillis(10));
+
+        List<String> failures = verdict(samples);
+        System.out.println("\n[soak] report written to " + CSV);
+        if (failures.isEmpty()) { System.out.println("[soak] PASS"); System.exit(0); }
+        for (String f : failures) System.out.println("[soak] FAIL " + f);
+        System.exit(1);
+    }
+
+    // ---------- verdict ----------
+    // Growth is "sustained" when even the best sample of the last third is worse than the worst sample
+    // of the first third (post warm-up) by more than the slack — noise and GC timing don't trip it.
+    static List<String> verdict(List<Sample> all) {
+        List<String> out = new ArrayList<>();
+        List<Sample> s = all.subList(Math.min(all.size(), Math.max(1, (int) (all.size() * WARMUP))), all.size());
+        if (s.size() < 6) {
+            out.add("not enough samples after warm-up (" + s.size() + " < 6); raise soak.minutes or lower soak.sampleSec");
+            return out;
+        }
+        int third = s.size() / 3;
+        List<Sample> first = s.subList(0, third), last = s.subList(s.size() - third, s.size());
+        growth(out, "heap-after-GC (bytes)", first, last, Sample::heapAfterGc, HEAP_SLACK);
+        growth(out, "thread count", first, last, x -> (long) x.threads, THREAD_SLACK);
+        if (all.get(0).fds >= 0) growth(out, "open FDs", first, last, Sample::fds, FD_SLACK);
+
+        Sample fin = all.get(all.size() - 1);
+        long total = fin.handshakes + fin.unexpected;
+        if (total == 0) out.add("no handshakes completed");
+        else if (100.0 * fin.unexpected / total > MAX_UNEXPECTED_PCT)
+            out.add("unexpected responses " + fin.unexpected + "/" + total + " exceed " + MAX_UNEXPECTED_PCT + "%");
+        return out;
+    }
+    private static void growth(List<String> out, String name, List<Sample> first, List<Sample> last,
+                               java.util.function.ToLongFunction<Sample> f, long slack) {
+        long firstMax = first.stream().mapToLong(f).max().orElse(0);
+        long lastMin  = last.stream().mapToLong(f).min().orElse(0);
+        if (lastMin > firstMax + slack)
+            out.add(name + " grew: first-third max=" + firstMax + ", last-third min=" + lastMin + " (slack " + slack + ")");
+    }
+
+    // ---------- sampling ----------
+    private static Sample sample(long elapsedSec) {
+        for (int i = 0; i < 2; i++) System.gc();
+        long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        int threads = ManagementFactory.getThreadMXBean().getThreadCount();
+        long fds = -1;
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.UnixOperatingSystemMXBean u) fds = u.getOpenFileDescriptorCount();
+
+        double[][] latMs = new double[ENDPOINTS.length][];
+        for (int i = 0; i < ENDPOINTS.length; i++) {
+            List<Long> l = latNanos.get(ENDPOINTS[i]);
+            long[] lat;
+            synchronized (l) {
+                lat = l.stream().mapToLong(Long::longValue).sorted().toArray();
+                l.clear();
+            }
+            latMs[i] = new double[]{pct(lat, 0.50), pct(lat, 0.95), pct(lat, 0.99), pct(lat, 1.0)};
+        }
+        long ok = done.get(Kind.OK).get(), exp = done.get(Kind.EXPIRED).get(),
+             rej = done.get(Kind.REJECTED).get(), mal = done.get(Kind.MALFORMED).get();
+        return new Sample(elapsedSec, heap, threads, fds, ok + exp + rej + mal, ok, exp, rej, mal, unexpected.get(), latMs);
+    }
+    private static double pct(long[] sorted, double q) {
+        if (sorted.length == 0) return 0;
+        int i = (int) Math.ceil(q * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, i))] / 1e6;
+    }
+
+    // ---------- load: desktop browser polling the UI ----------
+    private static void browserLoop() {
+        while (running) {
+            try {
+                call("GET", "/state", null);
+                if (RND.nextInt(10) == 0) call("GET", "/", null);
+                if (RND.nextInt(10) == 0) call("GET", "/qr.png", null);
+                Thread.sleep(200);
+            } catch (InterruptedException e) { return; }
+            catch (Exception ignored) { /* transient; PD loop accounts for protocol errors */ }
+        }
+    }
+
+    // ---------- load: phone (PD) handshakes ----------
+    private static void pdLoop() {
+        String lastSid = null;
+        try { // skip the session created at startup: its TTL may already be mostly spent
+            lastSid = jsonField(new String(call("GET", "/state", null).body(), StandardCharsets.UTF_8), "sid");
+        } catch (Exception ignored) { }
+        while (running) {
+            try {
+                String[] qr = freshSession(lastSid);
+                if (qr == null) continue;
+                lastSid = qr[0];
+                Kind k = Kind.values()[RND.nextInt(Kind.values().length)];
+                if (handshake(k, qr)) done.get(k).incrementAndGet();
+                else unexpected.incrementAndGet();
+            } catch (InterruptedException e) { return; }
+            catch (Exception e) {
+                unexpected.incrementAndGet();
+                System.err.println("[soak] handshake error: " + e);
+            }
+        }
+    }
+
+    // ---------- warm-up ----------
+    // Brings the DRBG, HTTP client, QR decoder and DH/HMAC code up to speed before the measurement window,
+    // so the first counted handshake is not the one paying for class loading, seeding and the cold JIT.
+    // No handshake is sent: every handshake the workers run is counted.
+    private static void warmUp() throws Exception {
+        long t = System.nanoTime();
+        String[] qr = null;
+        for (int i = 0; i < 200; i++) {
+            BigInteger x = Randomness.exponent(2048).mod(P);
+            byte[] r = Randomness.bytes(Session.NONCE_BYTES);
+            byte[] k = sha256(G.modPow(x, P).toString().getBytes(StandardCharsets.UTF_8));
+            String sas = makeSAS(k, r, r);
+            hmacSHA256(k, transcript(sha256hex(r), x, x, sas, sas, r, r, sas).getBytes(StandardCharsets.UTF_8));
+            if (i % 20 == 0) {
+                call("GET", "/state", null);
+                call("GET", "/", null);
+                String[] q = scanQR();
+                if (q != null) qr = q;
+            }
+        }
+        if (qr == null) throw new IllegalStateException("warm-up: could not decode the server's QR code");
+        System.out.printf(Locale.ROOT, "[soak] warm-up done in %d ms%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t));
+    }
+
+    // waits for the server to rotate to a session we haven't used yet, then scans its QR: {sid, sdPub, cSDHex}
+    private static String[] freshSession(String lastSid) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TTL_MS * 4 + 2000);
+        while (running && System.nanoTime() < deadline) {
+            String st = new String(call("GET", "/state", null).body(), StandardCharsets.UTF_8);
+            String sid = jsonField(st, "sid"), status = jsonField(st, "status");
+            if ("idle".equals(status) && !sid.equals(lastSid)) {
+                String[] qr = scanQR();
+                if (qr != null && qr[0].equals(sid)) return qr;
+            }
+            Thread.sleep(25);
+        }
+        return null;
+    }
+    private static String[] scanQR() {
+        try {
+            HttpResponse<byte[]> r = call("GET", "/qr.png", null);
+            if (r.statusCode() != 200) return null;
+            BufferedImage img = ImageIO.read(new ByteArrayInputStream(r.body()));
+            if (img == null) return null;
+            String text = new MultiFormatReader().decode(new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(img)))).getText();
+            String[] p = text.split("\\|");
+            return p.length == 3 ? p : null;
+        } catch (Exception e) { return null; } // QR being rewritten mid-read; caller retries
+    }
+
+    // returns true when every response matched what the protocol requires for this kind of handshake
+    private static boolean handshake(Kind kind, String[] qr) throws Exception {
+        String sid = qr[0];
+        BigInteger sdPub = new BigInteger(qr[1]);
+        String cSDHex = qr[2];
+
+        if (kind == Kind.MALFORMED) {
+            return expect(call("POST", "/pd_init", "garbage"), 400)
+                    & expect(call("GET", "/pd_init", null), 405)
+                    & expect(call("POST", "/pd_reveal", sid), 400)
+                    & expect(call("POST", "/pd_verify", sid + "|x|y"), 400)
+                    & expect(call("POST", "/sd_local_check", "nope|AB"), 410)
+                    & expect(call("POST", "/confirm", sid + "|accept"), 409)
+                    & expect(call("POST", "/pd_init", sid + "|not-a-number|00"), 400)
+                    & expect(call("POST", "/pd_init", sid + "|1|" + "ab".repeat(32)), 400);
+        }
+
+        BigInteger pdPriv = new BigInteger(2048, RND).mod(P);
+        BigInteger pdPub = G.modPow(pdPriv, P);
+        byte[] rPD = new byte[16]; RND.nextBytes(rPD);
+        String cPDHex = sha256hex(join(rPD, pdPub.toString().getBytes(StandardCharsets.UTF_8)));
+        if (!expect(timed("POST", "/pd_init", sid + "|" + pdPub + "|" + cPDHex), 200)) return false;
+
+        if (kind == Kind.EXPIRED) {
+            Thread.sleep(TTL_MS + 100);
+            return expect(timed("POST", "/pd_reveal", sid + "|" + Base64.getEncoder().encodeToString(rPD)), 410);
+        }
+
+        HttpResponse<byte[]> rev = timed("POST", "/pd_reveal", sid + "|" + Base64.getEncoder().encodeToString(rPD));
+        if (!expect(rev, 200)) return false;
+        byte[] rSD = Base64.getDecoder().decode(new String(rev.body(), StandardCharsets.UTF_8));
+        if (!sha256hex(join(rSD, sdPub.toString().getBytes(StandardCharsets.UTF_8))).equalsIgnoreCase(cSDHex)) return false;
+
+        BigInteger shared = sdPub.modPow(pdPriv, P);
+        byte[] kBytes = sha256(shared.toString().getBytes(StandardCharsets.UTF_8));
+        String sas = makeSAS(kBytes, rPD, rSD);
+        byte[] proof = hmacSHA256(Arrays.copyOf(kBytes, 32),
+                transcript(sid, sdPub, pdPub, cSDHex, cPDHex, rSD, rPD, sas).getBytes(StandardCharsets.UTF_8));
+
+        int variant = kind == Kind.REJECTED ? RND.nextInt(3) : -1;
+        if (variant == 0) { // tampered proof
+            proof[0] ^= 1;
+            return expect(timed("POST", "/pd_verify", sid + "|" + Base64.getEncoder().encodeToString(proof)), 403);
+        }
+        if (!expect(timed("POST", "/pd_verify", sid + "|" + Base64.getEncoder().encodeToString(proof)), 200)) return false;
+
+        String last2 = sas.substring(sas.length() - 2);
+        if (variant == 1) { // desktop user types the wrong code
+            String wrong = (last2.charAt(0) == 'Z' ? "A" : "Z") + last2.charAt(1);
+            return expect(timed("POST", "/sd_local_check", sid + "|" + wrong), 403);
+        }
+        if (!expect(timed("POST", "/sd_local_check", sid + "|" + last2), 200)) return false;
+
+        if (variant == 2) return expect(timed("POST", "/confirm", sid + "|reject"), 200);
+        return expect(timed("POST", "/confirm", sid + "|accept"), 200);
+    }
+
+    // ---------- helpers ----------
+    private static HttpResponse<byte[]> call(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(base + path)).timeout(Duration.ofSeconds(10));
+        b = body == null ? b.method(method, HttpRequest.BodyPublishers.noBody())
+                         : b.method(method, HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8));
+        return HTTP.send(b.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+    // handshake call: latency goes to the endpoint's own series
+    private static HttpResponse<byte[]> timed(String method, String path, String body) throws IOException, InterruptedException {
+        long t = System.nanoTime();
+        HttpResponse<byte[]> r = call(method, path, body);
+        long dt = System.nanoTime() - t;
+        List<Long> l = latNanos.get(path);
+        synchronized (l) { l.add(dt); }
+        return r;
+    }
+    private static boolean expect(HttpResponse<byte[]> r, int code) {
+        if (r.statusCode() == code) return true;
+        System.err.println("[soak] " + r.request().method() + " " + r.request().uri().getPath() + " -> " + r.statusCode()
+                + " (expected " + code + "): " + new String(r.body(), StandardCharsets.UTF_8));
+        return false;
+    }
+    private static String jsonField(String json, String key) {
+        int i = json.indexOf("\"" + key + "\":\"");
+        if (i < 0) return "";
+        int s = i + key.length() + 4;
+        return json.substring(s, json.indexOf('"', s));
+    }
+    private static Thread start(String name, Runnable r) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+}